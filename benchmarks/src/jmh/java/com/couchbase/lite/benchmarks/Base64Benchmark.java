@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.couchbase.lite.benchmarks;
+
+import com.couchbase.lite.support.Base64;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Base64 encoding and decoding of inline attachments, using the same
+ * com.couchbase.lite.support.Base64 calls as the attachment code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class Base64Benchmark {
+    @Param({"1024", "65536", "1048576"})
+    public int sizeOfData;
+
+    private byte[] data;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        data = new byte[sizeOfData];
+        new Random(42).nextBytes(data);
+        encoded = Base64.encodeBytes(data);
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base64.encodeBytes(data);
+    }
+
+    @Benchmark
+    public byte[] decode() throws IOException {
+        return Base64.decode(encoded);
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.couchbase.lite.benchmarks;
+
+import com.couchbase.lite.support.BatchProcessor;
+import com.couchbase.lite.support.Batcher;
+import com.couchbase.lite.util.Utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of queueing items through a Batcher with no processor delay, as the
+ * replicator does for revisions to push or pull.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class BatcherBenchmark {
+    private static final int NUMBER_OF_ITEMS = 10000;
+
+    @Param({"10", "100", "500"})
+    public int inboxCapacity;
+
+    private ScheduledExecutorService workExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workExecutor = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Utils.shutdownAndAwaitTermination(workExecutor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_ITEMS)
+    public void queueObjects() throws InterruptedException {
+        final CountDownLatch doneSignal = new CountDownLatch(NUMBER_OF_ITEMS);
+        Batcher<Integer> batcher = new Batcher<Integer>(workExecutor, inboxCapacity, 0,
+                new BatchProcessor<Integer>() {
+                    @Override
+                    public void process(List<Integer> itemsToProcess) {
+                        for (int i = 0; i < itemsToProcess.size(); i++)
+                            doneSignal.countDown();
+                    }
+                });
+        for (int i = 0; i < NUMBER_OF_ITEMS; i++)
+            batcher.queueObject(i);
+        if (!doneSignal.await(60, TimeUnit.SECONDS))
+            throw new IllegalStateException("Batcher did not process all items");
+    }
+}
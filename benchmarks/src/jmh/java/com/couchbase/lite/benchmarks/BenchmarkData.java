@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.couchbase.lite.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sample documents shared by the benchmarks, shaped like the ones used by the
+ * Android performance tests (see Test12_IndexView).
+ */
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    static Map<String, Object> createDocument(int i, int sizeOfContent) {
+        char[] chars = new char[sizeOfContent];
+        Arrays.fill(chars, 'a');
+
+        List<Object> tags = new ArrayList<Object>();
+        tags.add("tag" + (i % 10));
+        tags.add("tag" + (i % 7));
+
+        Map<String, Object> address = new HashMap<String, Object>();
+        address.put("street", i + " Main Street");
+        address.put("city", "Mountain View");
+        address.put("zip", 94040 + (i % 100));
+
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put("_id", String.format(Locale.ENGLISH, "doc-%08d", i));
+        props.put("type", "apartment");
+        props.put("name", "n" + i);
+        props.put("apt", i);
+        props.put("vacant", i % 2 == 0);
+        props.put("rent", 1000.5 + i);
+        props.put("tags", tags);
+        props.put("address", address);
+        props.put("content", new String(chars));
+        return props;
+    }
+}
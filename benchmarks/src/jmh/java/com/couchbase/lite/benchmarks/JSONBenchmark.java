@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.couchbase.lite.benchmarks;
+
+import com.couchbase.lite.Manager;
+import com.couchbase.lite.internal.Body;
+import com.couchbase.lite.util.JSONUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Encoding and decoding of document bodies through the shared ObjectMapper and Body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class JSONBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int sizeOfContent;
+
+    private Map<String, Object> properties;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        properties = BenchmarkData.createDocument(1, sizeOfContent);
+        json = Manager.getObjectMapper().writeValueAsBytes(properties);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return Manager.getObjectMapper().writeValueAsBytes(properties);
+    }
+
+    @Benchmark
+    public Map decode() throws IOException {
+        return Manager.getObjectMapper().readValue(json, Map.class);
+    }
+
+    @Benchmark
+    public long estimate() {
+        return JSONUtils.estimate(properties);
+    }
+
+    @Benchmark
+    public byte[] bodyEncode() {
+        return new Body(properties).getJson();
+    }
+
+    @Benchmark
+    public Map<String, Object> bodyDecode() {
+        return new Body(json).getProperties();
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.couchbase.lite.benchmarks;
+
+import com.couchbase.lite.support.MultipartReader;
+import com.couchbase.lite.support.MultipartReaderDelegate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Parsing of a multipart/related document with attachments, fed in network-sized chunks
+ * the same way the replicator feeds the reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class MultipartReaderBenchmark {
+    private static final String CONTENT_TYPE = "multipart/related; boundary=\"BOUNDARY\"";
+
+    @Param({"1024", "102400"})
+    public int sizeOfAttachment;
+
+    @Param({"8192"})
+    public int chunkSize;
+
+    private byte[] mime;
+
+    @Setup
+    public void setUp() {
+        Charset utf8 = Charset.forName("UTF-8");
+        char[] chars = new char[sizeOfAttachment];
+        Arrays.fill(chars, 'a');
+        String attachment = new String(chars);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("--BOUNDARY\r\nContent-Type: application/json\r\n\r\n");
+        sb.append("{\"_id\":\"doc\",\"_rev\":\"1-abc\",\"_attachments\":{}}");
+        for (int i = 0; i < 3; i++) {
+            sb.append("\r\n--BOUNDARY\r\nContent-Disposition: attachment; filename=att");
+            sb.append(i);
+            sb.append("\r\n\r\n");
+            sb.append(attachment);
+        }
+        sb.append("\r\n--BOUNDARY--");
+        mime = sb.toString().getBytes(utf8);
+    }
+
+    @Benchmark
+    public long parse() {
+        CountingDelegate delegate = new CountingDelegate();
+        MultipartReader reader = new MultipartReader(CONTENT_TYPE, delegate);
+        int location = 0;
+        while (!reader.finished() && location < mime.length) {
+            int length = Math.min(chunkSize, mime.length - location);
+            reader.appendData(Arrays.copyOfRange(mime, location, location + length));
+            location += length;
+        }
+        return delegate.bytes;
+    }
+
+    private static class CountingDelegate implements MultipartReaderDelegate {
+        long bytes;
+
+        public void startedPart(Map<String, String> headers) {
+        }
+
+        public void appendToPart(byte[] data) {
+            bytes += data.length;
+        }
+
+        public void appendToPart(byte[] data, int off, int len) {
+            bytes += len;
+        }
+
+        public void finishedPart() {
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.couchbase.lite.benchmarks;
+
+import com.couchbase.lite.support.RevisionUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+/**
+ * Canonical JSON encoding and revision ID digesting, done for every document write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class RevisionUtilsBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int sizeOfContent;
+
+    private Map<String, Object> properties;
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        properties = BenchmarkData.createDocument(1, sizeOfContent);
+        json = RevisionUtils.asCanonicalJSON(properties);
+    }
+
+    @Benchmark
+    public byte[] canonicalJSON() {
+        return RevisionUtils.asCanonicalJSON(properties);
+    }
+
+    @Benchmark
+    public String generateRevID() {
+        return RevisionUtils.generateRevID(json, false, "1-0123456789abcdef0123456789abcdef");
+    }
+}
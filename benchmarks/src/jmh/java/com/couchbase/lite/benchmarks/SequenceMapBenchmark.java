@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+package com.couchbase.lite.benchmarks;
+
+import com.couchbase.lite.support.SequenceMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Checkpoint tracking as done by the pusher: add a window of sequences, then remove
+ * them out of order while reading the checkpointed value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class SequenceMapBenchmark {
+    private static final int NUMBER_OF_SEQUENCES = 10000;
+
+    @Param({"1", "100", "1000"})
+    public int window;
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_SEQUENCES)
+    public String addAndRemove() {
+        SequenceMap map = new SequenceMap();
+        long[] pending = new long[window];
+        String checkpointed = null;
+        for (int i = 0; i < NUMBER_OF_SEQUENCES; i++) {
+            int slot = i % window;
+            if (pending[slot] != 0) {
+                map.removeSequence(pending[slot]);
+                checkpointed = map.getCheckpointedValue();
+            }
+            pending[slot] = map.addValue("doc-" + i);
+        }
+        return checkpointed;
+    }
+}
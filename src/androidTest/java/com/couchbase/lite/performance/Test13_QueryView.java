@@ -113,6 +113,46 @@ public class Test13_QueryView extends PerformanceTestCase {
         logPerformanceStats((end - start), getNumberOfDocuments() + "");
     }
 
+    /**
+     * Time until the first row is available, and the heap still held by the enumerator
+     * after a GC. Both grow with the result size, since Query.run() materializes every row
+     * before returning.
+     */
+    public void testQueryViewFirstRowPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("vacant");
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        long start = System.currentTimeMillis();
+        Query query = view.createQuery();
+        query.setMapOnly(true);
+        QueryEnumerator rowEnum = query.run();
+        assertTrue(rowEnum.hasNext());
+        assertNotNull(rowEnum.next().getKey());
+        long firstRow = System.currentTimeMillis();
+
+        int count = 1;
+        while (rowEnum.hasNext()) {
+            assertNotNull(rowEnum.next().getKey());
+            count++;
+        }
+        long end = System.currentTimeMillis();
+
+        // Collect the query's garbage outside the timed section; rowEnum is still reachable:
+        System.gc();
+        System.gc();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        assertEquals(count, rowEnum.getCount());
+
+        logPerformanceStats((firstRow - start), getNumberOfDocuments() + ", first row, " +
+                ((heapAfter - heapBefore) / 1024) + " KB heap held");
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", all rows");
+    }
+
     private int getNumberOfDocuments() {
         return Integer.parseInt(System.getProperty("test13.numberOfDocuments"));
     }
@@ -29,6 +29,8 @@ import com.couchbase.lite.TransactionalTask;
 import com.couchbase.lite.View;
 import com.couchbase.lite.util.Log;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -37,6 +39,8 @@ import java.util.Map;
 public class Test14_ReduceView extends PerformanceTestCase {
     public static final String TAG = "ReduceViewPerformance";
 
+    private List<String> docIDs;
+
     @Override
     protected String getTestTag() {
         return TAG;
@@ -66,6 +70,25 @@ public class Test14_ReduceView extends PerformanceTestCase {
             "1.0.0"
         );
 
+        View floorView = database.getView("vacantByFloor");
+        floorView.setMapReduce(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    Boolean vacant = (Boolean) document.get("vacant");
+                    Integer apt = (Integer) document.get("apt");
+                    if (vacant && apt != null)
+                        emitter.emit(Arrays.asList(apt / 100, apt), vacant);
+                }
+            },
+            new Reducer() {
+                public Object reduce(List<Object> keys, List<Object> values, boolean rereduce) {
+                    return rereduce ? View.totalValues(values) : values.size();
+                }
+            },
+            "1.0.0"
+        );
+
+        docIDs = new ArrayList<String>();
         boolean success = database.runInTransaction(new TransactionalTask() {
             public boolean run() {
                 for (int i = 0; i < getNumberOfDocuments(); i++) {
@@ -79,6 +102,7 @@ public class Test14_ReduceView extends PerformanceTestCase {
                     Document doc = database.createDocument();
                     try {
                         doc.putProperties(props);
+                        docIDs.add(doc.getId());
                     } catch(CouchbaseLiteException e) {
                         Log.e(TAG,"!!! Failed to create doc " + props, e);
                         return false;
@@ -108,6 +132,68 @@ public class Test14_ReduceView extends PerformanceTestCase {
         logPerformanceStats((end - start), getNumberOfDocuments() + "");
     }
 
+    public void testViewGroupedReducePerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("vacantByFloor");
+        view.updateIndex();
+
+        long start = System.currentTimeMillis();
+        Query query = view.createQuery();
+        query.setMapOnly(false);
+        query.setGroupLevel(1);
+        QueryEnumerator rowEnum = query.run();
+        while (rowEnum.hasNext()) {
+            QueryRow row = rowEnum.next();
+            assertNotNull(row.getValue());
+        }
+        long end = System.currentTimeMillis();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", groupLevel=1");
+    }
+
+    /**
+     * Reduce query after a small fraction of the documents changed. The whole index is
+     * reduced again even though only a few rows differ from the previous result.
+     */
+    public void testViewReduceAfterUpdatePerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("vacantByFloor");
+        view.updateIndex();
+        Query query = view.createQuery();
+        query.setMapOnly(false);
+        assertNotNull(query.run().getRow(0).getValue());
+
+        final int numberOfUpdates = Math.max(1, getNumberOfDocuments() / 100);
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < numberOfUpdates; i++) {
+                    Document doc = database.getDocument(docIDs.get(i));
+                    Map<String, Object> props = new HashMap<String, Object>(doc.getProperties());
+                    props.put("vacant", !((Boolean) props.get("vacant")));
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to update doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+
+        long start = System.currentTimeMillis();
+        view.updateIndex();
+        QueryEnumerator rowEnum = query.run();
+        QueryRow row = rowEnum.getRow(0);
+        assertNotNull(row.getValue());
+        long end = System.currentTimeMillis();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + numberOfUpdates + " updated");
+    }
+
     private int getNumberOfDocuments() {
         return Integer.parseInt(System.getProperty("test14.numberOfDocuments"));
     }
@@ -26,10 +26,13 @@ import com.couchbase.lite.util.Log;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class Test15_AllDocsQuery extends PerformanceTestCase {
     public static final String TAG = "AllDocsQueryPerformance";
 
+    private static final int NUMBER_OF_COUNT_CALLS = 1000;
+
     @Override
     protected String getTestTag() {
         return TAG;
@@ -81,6 +84,50 @@ public class Test15_AllDocsQuery extends PerformanceTestCase {
         logPerformanceStats((end - start), getNumberOfDocuments() + ", " + getSizeOfDocument());
     }
 
+    public void testAllDocsQueryIncludeDocsPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        Query query = database.createAllDocumentsQuery();
+        query.setPrefetch(true);
+        QueryEnumerator rowEnum = query.run();
+        while (rowEnum.hasNext()) {
+            QueryRow row = rowEnum.next();
+            assertNotNull(row.getDocumentProperties());
+        }
+        long end = System.currentTimeMillis();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + getSizeOfDocument() +
+                ", include_docs");
+    }
+
+    public void testDocumentCountPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        // Delete every tenth document so the count has to skip deleted ones:
+        int deleted = 0;
+        QueryEnumerator rowEnum = database.createAllDocumentsQuery().run();
+        for (int i = 0; rowEnum.hasNext(); i++) {
+            QueryRow row = rowEnum.next();
+            if (i % 10 == 0) {
+                database.getDocument(row.getDocumentId()).delete();
+                deleted++;
+            }
+        }
+
+        // One call can take less than a millisecond, so time a loop of them:
+        int count = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < NUMBER_OF_COUNT_CALLS; i++)
+            count = database.getDocumentCount();
+        long end = System.nanoTime();
+        assertEquals(getNumberOfDocuments() - deleted, count);
+        logPerformanceStats(TimeUnit.NANOSECONDS.toMillis(end - start), getNumberOfDocuments() +
+                ", " + deleted + " deleted, " + NUMBER_OF_COUNT_CALLS + " calls, " +
+                (end - start) / NUMBER_OF_COUNT_CALLS + " nsec per call");
+    }
+
     private int getSizeOfDocument() {
         return Integer.parseInt(System.getProperty("test15.sizeOfDocument"));
     }
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.text.Normalizer;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Indexing with a CPU-bound map function that parses dates and normalizes text,
+ * so that the time spent inside Mapper.map dominates the time spent in storage.
+ */
+public class Test17_IndexViewHeavyMap extends PerformanceTestCase {
+    public static final String TAG = "IndexViewHeavyMapPerformance";
+
+    private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byMonthAndTitle");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    String modified = (String) document.get("modified");
+                    String title = (String) document.get("title");
+                    if (modified == null || title == null)
+                        return;
+
+                    SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT, Locale.ENGLISH);
+                    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+                    Date date;
+                    try {
+                        date = format.parse(modified);
+                    } catch (ParseException e) {
+                        return;
+                    }
+                    Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"), Locale.ENGLISH);
+                    cal.setTime(date);
+
+                    String normalized = Normalizer.normalize(title, Normalizer.Form.NFD)
+                            .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
+                            .toLowerCase(Locale.ENGLISH);
+
+                    emitter.emit(Arrays.asList(cal.get(Calendar.YEAR),
+                            cal.get(Calendar.MONTH) + 1, normalized), null);
+                }
+            },
+            "1.0.0"
+        );
+
+        final SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT, Locale.ENGLISH);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final long baseTime = 1451606400000L; // 2016-01-01T00:00:00Z
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("title", String.format(Locale.ENGLISH, "Été à Montréal n°%d", i));
+                    props.put("modified", format.format(new Date(baseTime + i * 3600000L)));
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    public void testViewIndexHeavyMapPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byMonthAndTitle");
+        long start = System.currentTimeMillis();
+        view.updateIndex();
+        long end = System.currentTimeMillis();
+        assertEquals(getNumberOfDocuments(), view.getTotalRows());
+        logPerformanceStats((end - start), getNumberOfDocuments() + "");
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test17.numberOfDocuments"));
+    }
+}
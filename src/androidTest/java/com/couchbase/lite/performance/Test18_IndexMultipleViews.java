@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Status;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Indexing several views of one design group over the same documents, one view at a
+ * time versus all views together with View.updateIndexes().
+ */
+public class Test18_IndexMultipleViews extends PerformanceTestCase {
+    public static final String TAG = "IndexMultipleViewsPerformance";
+
+    private List<View> views;
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        views = new ArrayList<View>();
+        for (int v = 0; v < getNumberOfViews(); v++) {
+            final String field = "field" + v;
+            View view = database.getView("app/view" + v);
+            view.setMap(
+                new Mapper() {
+                    public void map(Map<String, Object> document, Emitter emitter) {
+                        Object value = document.get(field);
+                        if (value != null)
+                            emitter.emit(value, document.get("name"));
+                    }
+                },
+                "1.0.0"
+            );
+            views.add(view);
+        }
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", String.format(Locale.ENGLISH, "%s%s", "n", i));
+                    for (int v = 0; v < getNumberOfViews(); v++)
+                        props.put("field" + v, (i * 31 + v) % 1000);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    public void testIndexViewsSeparatelyPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        for (View view : views) {
+            long viewStart = System.currentTimeMillis();
+            Status status = view.updateIndexAlone();
+            assertEquals(Status.OK, status.getCode());
+            logPerformanceStats((System.currentTimeMillis() - viewStart), view.getName());
+        }
+        long end = System.currentTimeMillis();
+        assertIndexed();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + getNumberOfViews());
+    }
+
+    public void testIndexViewsTogetherPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        Status status = views.get(0).updateIndexes(views);
+        assertEquals(Status.OK, status.getCode());
+        long end = System.currentTimeMillis();
+        assertIndexed();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + getNumberOfViews());
+    }
+
+    private void assertIndexed() {
+        for (View view : views) {
+            assertEquals(database.getLastSequenceNumber(), view.getLastSequenceIndexed());
+            assertEquals(getNumberOfDocuments(), view.getTotalRows());
+        }
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test18.numberOfDocuments"));
+    }
+
+    private int getNumberOfViews() {
+        return Integer.parseInt(System.getProperty("test18.numberOfViews"));
+    }
+}
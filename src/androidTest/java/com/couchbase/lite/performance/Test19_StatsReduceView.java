@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.Reducer;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grouped reduce queries using Java equivalents of the CouchDB built-in reduce
+ * functions (_count, _sum and _stats) over a [year, month, day] keyed view.
+ */
+public class Test19_StatsReduceView extends PerformanceTestCase {
+    public static final String TAG = "StatsReduceViewPerformance";
+
+    private static final String MAP_VERSION = "1.0.0";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("year", 2010 + (i % 7));
+                    props.put("month", 1 + (i % 12));
+                    props.put("day", 1 + (i % 28));
+                    props.put("amount", (i % 1000) + 0.5);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    public void testCountReducePerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        runReduceQueries("count", new Reducer() {
+            public Object reduce(List<Object> keys, List<Object> values, boolean rereduce) {
+                return rereduce ? View.totalValues(values) : values.size();
+            }
+        });
+    }
+
+    public void testSumReducePerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        runReduceQueries("sum", new Reducer() {
+            public Object reduce(List<Object> keys, List<Object> values, boolean rereduce) {
+                return View.totalValues(values);
+            }
+        });
+    }
+
+    public void testStatsReducePerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        runReduceQueries("stats", new Reducer() {
+            public Object reduce(List<Object> keys, List<Object> values, boolean rereduce) {
+                double sum = 0, sumsqr = 0;
+                double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                long count = 0;
+                for (Object value : values) {
+                    if (rereduce) {
+                        Map<String, Object> stats = (Map<String, Object>) value;
+                        sum += ((Number) stats.get("sum")).doubleValue();
+                        sumsqr += ((Number) stats.get("sumsqr")).doubleValue();
+                        count += ((Number) stats.get("count")).longValue();
+                        min = Math.min(min, ((Number) stats.get("min")).doubleValue());
+                        max = Math.max(max, ((Number) stats.get("max")).doubleValue());
+                    } else {
+                        double n = ((Number) value).doubleValue();
+                        sum += n;
+                        sumsqr += n * n;
+                        count++;
+                        min = Math.min(min, n);
+                        max = Math.max(max, n);
+                    }
+                }
+                Map<String, Object> stats = new HashMap<String, Object>();
+                stats.put("sum", sum);
+                stats.put("count", count);
+                stats.put("min", min);
+                stats.put("max", max);
+                stats.put("sumsqr", sumsqr);
+                return stats;
+            }
+        });
+    }
+
+    private void runReduceQueries(String name, Reducer reducer) throws CouchbaseLiteException {
+        View view = database.getView(name);
+        view.setMapReduce(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    emitter.emit(Arrays.asList(document.get("year"), document.get("month"),
+                            document.get("day")), document.get("amount"));
+                }
+            },
+            reducer,
+            MAP_VERSION
+        );
+        view.updateIndex();
+
+        for (int groupLevel = 0; groupLevel <= 3; groupLevel++) {
+            long start = System.currentTimeMillis();
+            Query query = view.createQuery();
+            query.setMapOnly(false);
+            query.setGroupLevel(groupLevel);
+            QueryEnumerator rowEnum = query.run();
+            while (rowEnum.hasNext()) {
+                QueryRow row = rowEnum.next();
+                assertNotNull(row.getValue());
+            }
+            long end = System.currentTimeMillis();
+            logPerformanceStats((end - start), getNumberOfDocuments() + ", " + name +
+                    ", groupLevel=" + groupLevel + ", rows=" + rowEnum.getCount());
+        }
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test19.numberOfDocuments"));
+    }
+}
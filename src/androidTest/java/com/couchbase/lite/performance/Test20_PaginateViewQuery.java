@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Paging through a whole view, either with skip and limit or by seeking past the last
+ * row of the previous page with startKey and startKeyDocID. The view has many rows per
+ * key, so the seek must use the docID to resume in the middle of a run of equal keys.
+ */
+public class Test20_PaginateViewQuery extends PerformanceTestCase {
+    public static final String TAG = "PaginateViewQueryPerformance";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byFloor");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    emitter.emit(document.get("floor"), null);
+                }
+            },
+            "1.0.0"
+        );
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("floor", i % 100);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        view.updateIndex();
+    }
+
+    public void testSkipLimitPaginationPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byFloor");
+        Set<String> docIDs = new HashSet<String>();
+        long start = System.currentTimeMillis();
+        long lastPage = 0;
+        for (int skip = 0; ; skip += getPageSize()) {
+            long pageStart = System.currentTimeMillis();
+            Query query = view.createQuery();
+            query.setSkip(skip);
+            query.setLimit(getPageSize());
+            QueryEnumerator rowEnum = query.run();
+            if (rowEnum.getCount() == 0)
+                break;
+            for (QueryRow row : rowEnum)
+                assertTrue(docIDs.add(row.getDocumentId()));
+            lastPage = System.currentTimeMillis() - pageStart;
+        }
+        long end = System.currentTimeMillis();
+        assertEquals(getNumberOfDocuments(), docIDs.size());
+        logPerformanceStats(lastPage, getNumberOfDocuments() + ", last page");
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", all pages");
+    }
+
+    public void testKeysetPaginationPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        runKeysetPagination(false);
+    }
+
+    public void testKeysetPaginationDescendingPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        runKeysetPagination(true);
+    }
+
+    private void runKeysetPagination(boolean descending) throws CouchbaseLiteException {
+        View view = database.getView("byFloor");
+        Set<String> docIDs = new HashSet<String>();
+        Object lastKey = null;
+        String lastDocID = null;
+        long start = System.currentTimeMillis();
+        long lastPage = 0;
+        while (true) {
+            long pageStart = System.currentTimeMillis();
+            Query query = view.createQuery();
+            query.setDescending(descending);
+            query.setLimit(getPageSize());
+            if (lastDocID != null) {
+                // startKey/startKeyDocID are inclusive; skip the row we already have.
+                query.setStartKey(lastKey);
+                query.setStartKeyDocId(lastDocID);
+                query.setSkip(1);
+            }
+            QueryEnumerator rowEnum = query.run();
+            if (rowEnum.getCount() == 0)
+                break;
+            for (QueryRow row : rowEnum) {
+                assertTrue(docIDs.add(row.getDocumentId()));
+                lastKey = row.getKey();
+                lastDocID = row.getDocumentId();
+            }
+            lastPage = System.currentTimeMillis() - pageStart;
+        }
+        long end = System.currentTimeMillis();
+        assertEquals(getNumberOfDocuments(), docIDs.size());
+        String comment = getNumberOfDocuments() + (descending ? ", descending" : "");
+        logPerformanceStats(lastPage, comment + ", last page");
+        logPerformanceStats((end - start), comment + ", all pages");
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test20.numberOfDocuments"));
+    }
+
+    private int getPageSize() {
+        return Integer.parseInt(System.getProperty("test20.pageSize"));
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.LiveQuery;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latency from a single document update to the LiveQuery change notification, and the
+ * time a listener spends working out which rows changed from the previous result.
+ */
+public class Test21_LiveQueryUpdate extends PerformanceTestCase {
+    public static final String TAG = "LiveQueryUpdatePerformance";
+
+    private List<String> docIDs;
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byName");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    emitter.emit(document.get("name"), document.get("count"));
+                }
+            },
+            "1.0.0"
+        );
+
+        docIDs = new ArrayList<String>();
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", "n" + i);
+                    props.put("count", 0);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                        docIDs.add(doc.getId());
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        view.updateIndex();
+    }
+
+    public void testLiveQueryUpdatePerformance() throws Exception {
+        if (!performanceTestsEnabled())
+            return;
+
+        final Map<String, Object> previous = new HashMap<String, Object>();
+        final AtomicLong diffTime = new AtomicLong();
+        final AtomicLong changedRows = new AtomicLong();
+        final AtomicReference<CountDownLatch> latch =
+                new AtomicReference<CountDownLatch>(new CountDownLatch(1));
+
+        LiveQuery liveQuery = database.getView("byName").createQuery().toLiveQuery();
+        liveQuery.addChangeListener(new LiveQuery.ChangeListener() {
+            @Override
+            public void changed(LiveQuery.ChangeEvent event) {
+                long start = System.nanoTime();
+                QueryEnumerator rows = event.getRows();
+                int changed = 0;
+                Map<String, Object> current = new HashMap<String, Object>();
+                for (QueryRow row : rows) {
+                    current.put(row.getDocumentId(), row.getValue());
+                    Object old = previous.get(row.getDocumentId());
+                    if (old == null || !old.equals(row.getValue()))
+                        changed++;
+                }
+                previous.clear();
+                previous.putAll(current);
+                diffTime.set(System.nanoTime() - start);
+                changedRows.set(changed);
+                latch.get().countDown();
+            }
+        });
+        liveQuery.start();
+        try {
+            assertTrue(latch.get().await(60, TimeUnit.SECONDS));
+            assertEquals(getNumberOfDocuments(), previous.size());
+
+            for (int i = 0; i < getNumberOfUpdates(); i++) {
+                latch.set(new CountDownLatch(1));
+                Document doc = database.getDocument(docIDs.get(i));
+                Map<String, Object> props = new HashMap<String, Object>(doc.getProperties());
+                props.put("count", i + 1);
+
+                long start = System.currentTimeMillis();
+                doc.putProperties(props);
+                assertTrue(latch.get().await(60, TimeUnit.SECONDS));
+                long end = System.currentTimeMillis();
+
+                assertEquals(1, changedRows.get());
+                logPerformanceStats((end - start), getNumberOfDocuments() + ", update to notification");
+                // The diff is well under a millisecond, so also report it in microseconds:
+                logPerformanceStats(TimeUnit.NANOSECONDS.toMillis(diffTime.get()),
+                        getNumberOfDocuments() + ", listener diff, " +
+                        TimeUnit.NANOSECONDS.toMicros(diffTime.get()) + " usec");
+            }
+        } finally {
+            liveQuery.stop();
+        }
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test21.numberOfDocuments"));
+    }
+
+    private int getNumberOfUpdates() {
+        return Integer.parseInt(System.getProperty("test21.numberOfUpdates"));
+    }
+}
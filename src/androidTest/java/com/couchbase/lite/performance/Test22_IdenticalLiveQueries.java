@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.LiveQuery;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Several LiveQueries with the same view and options, as registered by independent
+ * screens observing the same data. Every one of them re-runs the query after each change.
+ */
+public class Test22_IdenticalLiveQueries extends PerformanceTestCase {
+    public static final String TAG = "IdenticalLiveQueriesPerformance";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byName");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    emitter.emit(document.get("name"), null);
+                }
+            },
+            "1.0.0"
+        );
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", "n" + i);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        view.updateIndex();
+    }
+
+    public void testSingleLiveQueryPerformance() throws Exception {
+        if (!performanceTestsEnabled())
+            return;
+
+        runLiveQueries(1);
+    }
+
+    public void testIdenticalLiveQueriesPerformance() throws Exception {
+        if (!performanceTestsEnabled())
+            return;
+
+        runLiveQueries(getNumberOfLiveQueries());
+    }
+
+    private void runLiveQueries(final int numberOfLiveQueries) throws Exception {
+        final AtomicReference<CountDownLatch> latch =
+                new AtomicReference<CountDownLatch>(new CountDownLatch(numberOfLiveQueries));
+        final AtomicLong notifications = new AtomicLong();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        List<LiveQuery> liveQueries = new ArrayList<LiveQuery>();
+        for (int i = 0; i < numberOfLiveQueries; i++) {
+            LiveQuery liveQuery = database.getView("byName").createQuery().toLiveQuery();
+            liveQuery.setLimit(getPageSize());
+            liveQuery.addChangeListener(new LiveQuery.ChangeListener() {
+                @Override
+                public void changed(LiveQuery.ChangeEvent event) {
+                    // Failing here would only time out the latch, so report to the test thread:
+                    if (event.getError() != null)
+                        error.compareAndSet(null, event.getError());
+                    notifications.incrementAndGet();
+                    latch.get().countDown();
+                }
+            });
+            liveQueries.add(liveQuery);
+        }
+
+        try {
+            for (LiveQuery liveQuery : liveQueries)
+                liveQuery.start();
+            assertTrue(latch.get().await(60, TimeUnit.SECONDS));
+            assertNull(error.get());
+            notifications.set(0);
+
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < getNumberOfUpdates(); i++) {
+                latch.set(new CountDownLatch(numberOfLiveQueries));
+                Map<String, Object> props = new HashMap<String, Object>();
+                // Sorts before every existing name, so every LiveQuery's first page changes.
+                props.put("name", "a" + i);
+                database.createDocument().putProperties(props);
+                assertTrue(latch.get().await(60, TimeUnit.SECONDS));
+                assertNull(error.get());
+            }
+            long end = System.currentTimeMillis();
+            logPerformanceStats((end - start), getNumberOfDocuments() + ", " +
+                    numberOfLiveQueries + " live queries, " + notifications.get() +
+                    " notifications delivered");
+        } finally {
+            for (LiveQuery liveQuery : liveQueries)
+                liveQuery.stop();
+        }
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test22.numberOfDocuments"));
+    }
+
+    private int getNumberOfLiveQueries() {
+        return Integer.parseInt(System.getProperty("test22.numberOfLiveQueries"));
+    }
+
+    private int getNumberOfUpdates() {
+        return Integer.parseInt(System.getProperty("test22.numberOfUpdates"));
+    }
+
+    private int getPageSize() {
+        return Integer.parseInt(System.getProperty("test22.pageSize"));
+    }
+}
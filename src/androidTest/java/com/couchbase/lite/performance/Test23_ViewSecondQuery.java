@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Performance counterpart of ViewsTest.testViewSecondQuery(): the same query with the
+ * same options run repeatedly while the database does not change.
+ */
+public class Test23_ViewSecondQuery extends PerformanceTestCase {
+    public static final String TAG = "ViewSecondQueryPerformance";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byName");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    if (document.get("name") != null)
+                        emitter.emit(document.get("name"), document);
+                }
+            },
+            "1.0.0"
+        );
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> behavior = new HashMap<String, Object>();
+                    behavior.put("style", "predatory");
+                    behavior.put("attack", "ambush");
+                    Map<String, Object> evolution = new HashMap<String, Object>();
+                    evolution.put("ancestor", "proto-roaches");
+                    evolution.put("cousin", "termite");
+                    Map<String, Object> wikipedia = new HashMap<String, Object>();
+                    wikipedia.put("behavior", behavior);
+                    wikipedia.put("evolution", evolution);
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", "praying mantis " + i);
+                    props.put("wikipedia", wikipedia);
+
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        view.updateIndex();
+    }
+
+    public void testViewSecondQueryPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byName");
+        long firstQuery = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < getNumberOfQueries(); i++) {
+            long queryStart = System.nanoTime();
+            Query query = view.createQuery();
+            query.setLimit(getPageSize());
+            QueryEnumerator rowEnum = query.run();
+            while (rowEnum.hasNext()) {
+                QueryRow row = rowEnum.next();
+                Map wikipedia = (Map) ((Map) row.getValue()).get("wikipedia");
+                assertTrue(wikipedia.containsKey("behavior"));
+            }
+            if (i == 0)
+                firstQuery = System.nanoTime() - queryStart;
+        }
+        long end = System.nanoTime();
+
+        // Repeated queries can take well under a millisecond, so report microseconds too:
+        long repeated = (end - start - firstQuery) / Math.max(1, getNumberOfQueries() - 1);
+        logPerformanceStats(TimeUnit.NANOSECONDS.toMillis(firstQuery), getNumberOfDocuments() +
+                ", first query, " + TimeUnit.NANOSECONDS.toMicros(firstQuery) + " usec");
+        logPerformanceStats(TimeUnit.NANOSECONDS.toMillis(repeated), getNumberOfDocuments() +
+                ", average of repeated queries, " + TimeUnit.NANOSECONDS.toMicros(repeated) +
+                " usec");
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test23.numberOfDocuments"));
+    }
+
+    private int getNumberOfQueries() {
+        return Integer.parseInt(System.getProperty("test23.numberOfQueries"));
+    }
+
+    private int getPageSize() {
+        return Integer.parseInt(System.getProperty("test23.pageSize"));
+    }
+}
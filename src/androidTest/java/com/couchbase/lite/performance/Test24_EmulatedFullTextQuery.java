@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Text search emulated with a regular view: the map function tokenizes the text and emits
+ * one row per distinct word, and a multi-word query intersects the matching documents in
+ * Java. This is the approach a native full-text index would replace.
+ */
+public class Test24_EmulatedFullTextQuery extends PerformanceTestCase {
+    public static final String TAG = "EmulatedFullTextQueryPerformance";
+
+    private static final int VOCABULARY_SIZE = 2000;
+    private static final int WORDS_PER_DOCUMENT = 50;
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("words");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    String text = (String) document.get("text");
+                    if (text == null)
+                        return;
+                    Set<String> words = new HashSet<String>();
+                    for (String word : text.toLowerCase(Locale.ENGLISH).split("\\W+")) {
+                        if (word.length() > 0 && words.add(word))
+                            emitter.emit(word, null);
+                    }
+                }
+            },
+            "1.0.0"
+        );
+
+        final Random random = new Random(42);
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    StringBuilder text = new StringBuilder();
+                    for (int w = 0; w < WORDS_PER_DOCUMENT; w++) {
+                        if (w > 0)
+                            text.append(w % 10 == 0 ? ". " : " ");
+                        // Skewed distribution, so low-numbered words are common:
+                        int n = (int) (VOCABULARY_SIZE * Math.pow(random.nextDouble(), 3));
+                        text.append("Word").append(n);
+                    }
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("text", text.toString());
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    public void testEmulatedFullTextIndexPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("words");
+        long start = System.currentTimeMillis();
+        view.updateIndex();
+        long end = System.currentTimeMillis();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " +
+                view.getTotalRows() + " index rows");
+    }
+
+    public void testEmulatedFullTextQueryPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("words");
+        view.updateIndex();
+
+        // One common and one rarer word, matched as "word1 AND word100":
+        long start = System.currentTimeMillis();
+        Set<String> matches = null;
+        for (String word : Arrays.asList("word1", "word100")) {
+            Query query = view.createQuery();
+            query.setStartKey(word);
+            query.setEndKey(word);
+            QueryEnumerator rowEnum = query.run();
+            Set<String> docIDs = new HashSet<String>();
+            for (QueryRow row : rowEnum)
+                docIDs.add(row.getDocumentId());
+            if (matches == null)
+                matches = docIDs;
+            else
+                matches.retainAll(docIDs);
+        }
+        long end = System.currentTimeMillis();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " +
+                matches.size() + " matches");
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test24.numberOfDocuments"));
+    }
+}
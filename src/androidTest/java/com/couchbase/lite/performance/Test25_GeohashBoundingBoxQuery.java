@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Map viewport queries against a view keyed by geohash. The query scans the geohash
+ * prefix shared by the viewport corners and filters the rows by bounding box in Java,
+ * applying skip and limit after the filter. This is the baseline for a spatial index.
+ * The viewport covers about 9% of the region, so with the default properties it holds
+ * more than skip + limit documents.
+ */
+public class Test25_GeohashBoundingBoxQuery extends PerformanceTestCase {
+    public static final String TAG = "GeohashBoundingBoxQueryPerformance";
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final int GEOHASH_PRECISION = 9;
+
+    // Region the documents are spread over, and a viewport inside it:
+    private static final double MIN_LAT = 37.0, MAX_LAT = 38.0;
+    private static final double MIN_LON = -123.0, MAX_LON = -122.0;
+    private static final double[] VIEWPORT = {37.30, -122.70, 37.60, -122.40};
+
+    private final List<double[]> locations = new ArrayList<double[]>();
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("geohash");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    List<Number> location = (List<Number>) document.get("location");
+                    if (location != null) {
+                        double lat = location.get(0).doubleValue();
+                        double lon = location.get(1).doubleValue();
+                        emitter.emit(geohash(lat, lon, GEOHASH_PRECISION), location);
+                    }
+                }
+            },
+            "1.0.0"
+        );
+
+        final Random random = new Random(42);
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    double lat = MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+                    double lon = MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON);
+                    locations.add(new double[]{lat, lon});
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("location", Arrays.asList(lat, lon));
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        view.updateIndex();
+    }
+
+    public void testBoundingBoxQueryPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        String sw = geohash(VIEWPORT[0], VIEWPORT[1], GEOHASH_PRECISION);
+        String ne = geohash(VIEWPORT[2], VIEWPORT[3], GEOHASH_PRECISION);
+        int n = 0;
+        while (n < sw.length() && sw.charAt(n) == ne.charAt(n))
+            n++;
+        String prefix = sw.substring(0, n);
+
+        int skip = getSkip();
+        int limit = getLimit();
+        long start = System.currentTimeMillis();
+        Query query = database.getView("geohash").createQuery();
+        query.setStartKey(prefix);
+        query.setEndKey(prefix);
+        query.setPrefixMatchLevel(1);
+        QueryEnumerator rowEnum = query.run();
+        int scanned = 0, matched = 0, returned = 0;
+        for (QueryRow row : rowEnum) {
+            scanned++;
+            List<Number> location = (List<Number>) row.getValue();
+            double lat = location.get(0).doubleValue();
+            double lon = location.get(1).doubleValue();
+            if (!inViewport(lat, lon))
+                continue;
+            if (matched++ < skip)
+                continue;
+            if (++returned == limit)
+                break;
+        }
+        long end = System.currentTimeMillis();
+
+        // The loop stops at the limit, so count the viewport by brute force:
+        int expected = 0;
+        for (double[] location : locations) {
+            if (inViewport(location[0], location[1]))
+                expected++;
+        }
+        assertTrue(expected > skip + limit);
+        assertEquals(Math.min(limit, Math.max(0, expected - skip)), returned);
+
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", prefix '" + prefix +
+                "', " + scanned + " scanned, " + returned + " returned");
+    }
+
+    private static boolean inViewport(double lat, double lon) {
+        return lat >= VIEWPORT[0] && lat <= VIEWPORT[2] && lon >= VIEWPORT[1] && lon <= VIEWPORT[3];
+    }
+
+    private static String geohash(double lat, double lon, int precision) {
+        double[] latRange = {-90.0, 90.0};
+        double[] lonRange = {-180.0, 180.0};
+        StringBuilder hash = new StringBuilder(precision);
+        boolean even = true;
+        int bit = 0, ch = 0;
+        while (hash.length() < precision) {
+            double[] range = even ? lonRange : latRange;
+            double value = even ? lon : lat;
+            double mid = (range[0] + range[1]) / 2;
+            ch <<= 1;
+            if (value >= mid) {
+                ch |= 1;
+                range[0] = mid;
+            } else {
+                range[1] = mid;
+            }
+            even = !even;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test25.numberOfDocuments"));
+    }
+
+    private int getSkip() {
+        return Integer.parseInt(System.getProperty("test25.skip"));
+    }
+
+    private int getLimit() {
+        return Integer.parseInt(System.getProperty("test25.limit"));
+    }
+}
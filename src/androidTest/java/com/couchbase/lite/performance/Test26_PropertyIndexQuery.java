@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Views that only index a top-level property, in the style of emit(doc.type, null) and
+ * emit(doc.modified, null). Measures the cost of writing documents and bringing the
+ * views up to date, and of key range queries on them.
+ */
+public class Test26_PropertyIndexQuery extends PerformanceTestCase {
+    public static final String TAG = "PropertyIndexQueryPerformance";
+
+    private static final List<String> TYPES = Arrays.asList("task", "list", "profile", "comment");
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        database.getView("type").setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    if (document.get("type") != null)
+                        emitter.emit(document.get("type"), null);
+                }
+            },
+            "1.0.0"
+        );
+
+        database.getView("modified").setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    if (document.get("modified") != null)
+                        emitter.emit(document.get("modified"), null);
+                }
+            },
+            "1.0.0"
+        );
+    }
+
+    public void testWriteAndIndexPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        createDocuments();
+        long written = System.currentTimeMillis();
+        database.getView("type").updateIndex();
+        database.getView("modified").updateIndex();
+        long end = System.currentTimeMillis();
+
+        assertEquals(getNumberOfDocuments(), database.getView("type").getTotalRows());
+        logPerformanceStats((written - start), getNumberOfDocuments() + ", write");
+        logPerformanceStats((end - written), getNumberOfDocuments() + ", index");
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", total");
+    }
+
+    public void testKeyRangeQueryPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        createDocuments();
+        View view = database.getView("modified");
+        view.updateIndex();
+
+        // A tenth of the documents, from the middle of the modification range:
+        long from = getNumberOfDocuments() * 4 / 10;
+        long to = getNumberOfDocuments() * 5 / 10 - 1;
+        long start = System.currentTimeMillis();
+        Query query = view.createQuery();
+        query.setStartKey(from);
+        query.setEndKey(to);
+        QueryEnumerator rowEnum = query.run();
+        int count = 0;
+        for (QueryRow row : rowEnum) {
+            assertNotNull(row.getDocumentId());
+            count++;
+        }
+        long end = System.currentTimeMillis();
+        assertEquals(to - from + 1, count);
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + count + " rows");
+    }
+
+    private void createDocuments() {
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("type", TYPES.get(i % TYPES.size()));
+                    props.put("modified", i);
+                    props.put("title", "title " + i);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test26.numberOfDocuments"));
+    }
+}
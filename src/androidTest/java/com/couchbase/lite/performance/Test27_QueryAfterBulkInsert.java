@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latency of the first query after a large batch of documents arrives (for example from
+ * a pull replication). The index is brought up to date by the query itself
+ * (IndexUpdateMode.BEFORE), or beforehand by a background thread, or by a background
+ * thread that is still indexing when the query is issued.
+ */
+public class Test27_QueryAfterBulkInsert extends PerformanceTestCase {
+    public static final String TAG = "QueryAfterBulkInsertPerformance";
+
+    // Counted down by the map function, so a test can tell that indexing is in progress:
+    private volatile CountDownLatch mapping;
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byName");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    CountDownLatch latch = mapping;
+                    if (latch != null)
+                        latch.countDown();
+                    emitter.emit(document.get("name"), null);
+                }
+            },
+            "1.0.0"
+        );
+        view.updateIndex();
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", "n" + i);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    public void testFirstQueryWithStaleIndexPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        QueryEnumerator rowEnum = runFirstPageQuery();
+        long end = System.currentTimeMillis();
+        assertEquals(getPageSize(), rowEnum.getCount());
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", first query");
+    }
+
+    public void testFirstQueryAfterBackgroundIndexingPerformance() throws Exception {
+        if (!performanceTestsEnabled())
+            return;
+
+        AtomicLong indexingTime = new AtomicLong();
+        AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread indexer = startIndexer(indexingTime, error);
+        indexer.join();
+        assertNull(error.get());
+        assertFalse(database.getView("byName").isStale());
+
+        long start = System.currentTimeMillis();
+        QueryEnumerator rowEnum = runFirstPageQuery();
+        long end = System.currentTimeMillis();
+        assertEquals(getPageSize(), rowEnum.getCount());
+        logPerformanceStats(indexingTime.get(), getNumberOfDocuments() + ", background indexing");
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", first query");
+    }
+
+    public void testFirstQueryDuringBackgroundIndexingPerformance() throws Exception {
+        if (!performanceTestsEnabled())
+            return;
+
+        // Wait for the first map call, so the query is only issued once the indexer is
+        // actually indexing:
+        mapping = new CountDownLatch(1);
+        AtomicLong indexingTime = new AtomicLong();
+        AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread indexer = startIndexer(indexingTime, error);
+        assertTrue(mapping.await(10, TimeUnit.SECONDS));
+
+        long start = System.currentTimeMillis();
+        QueryEnumerator rowEnum = runFirstPageQuery();
+        long end = System.currentTimeMillis();
+
+        indexer.join();
+        assertNull(error.get());
+        assertFalse(database.getView("byName").isStale());
+        assertEquals(getPageSize(), rowEnum.getCount());
+        logPerformanceStats(indexingTime.get(), getNumberOfDocuments() + ", background indexing");
+        logPerformanceStats((end - start), getNumberOfDocuments() +
+                ", first query during background indexing");
+    }
+
+    private Thread startIndexer(final AtomicLong indexingTime,
+                                final AtomicReference<Throwable> error) {
+        Thread indexer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.currentTimeMillis();
+                try {
+                    database.getView("byName").updateIndex();
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+                indexingTime.set(System.currentTimeMillis() - start);
+            }
+        });
+        indexer.start();
+        return indexer;
+    }
+
+    private QueryEnumerator runFirstPageQuery() throws CouchbaseLiteException {
+        Query query = database.getView("byName").createQuery();
+        query.setIndexUpdateMode(Query.IndexUpdateMode.BEFORE);
+        query.setLimit(getPageSize());
+        return query.run();
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test27.numberOfDocuments"));
+    }
+
+    private int getPageSize() {
+        return Integer.parseInt(System.getProperty("test27.pageSize"));
+    }
+}
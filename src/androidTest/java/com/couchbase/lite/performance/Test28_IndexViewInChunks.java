@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indexing a view in one updateIndex() call over all the documents, versus incrementally:
+ * the chunked variant inserts a chunk of documents and then calls updateIndex(), chunk by
+ * chunk. It measures incremental indexing as documents arrive, not an existing backlog
+ * indexed with chunked commits. The longest single call is how long a caller is blocked,
+ * and the difference in total time is the overhead of indexing in increments.
+ */
+public class Test28_IndexViewInChunks extends PerformanceTestCase {
+    public static final String TAG = "IndexViewInChunksPerformance";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byName");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    emitter.emit(document.get("name"), document.get("apt"));
+                }
+            },
+            "1.0.0"
+        );
+    }
+
+    public void testIndexViewAtOncePerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        createDocuments(0, getNumberOfDocuments());
+        View view = database.getView("byName");
+        long start = System.currentTimeMillis();
+        view.updateIndex();
+        long end = System.currentTimeMillis();
+        assertEquals(getNumberOfDocuments(), view.getTotalRows());
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", one call");
+    }
+
+    public void testIndexViewInChunksPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byName");
+        long total = 0;
+        long longest = 0;
+        for (int i = 0; i < getNumberOfDocuments(); i += getChunkSize()) {
+            createDocuments(i, Math.min(getChunkSize(), getNumberOfDocuments() - i));
+            long start = System.currentTimeMillis();
+            view.updateIndex();
+            long time = System.currentTimeMillis() - start;
+            total += time;
+            longest = Math.max(longest, time);
+        }
+        assertEquals(getNumberOfDocuments(), view.getTotalRows());
+        String comment = getNumberOfDocuments() + ", chunks of " + getChunkSize();
+        logPerformanceStats(longest, comment + ", longest call");
+        logPerformanceStats(total, comment + ", total");
+    }
+
+    private void createDocuments(final int first, final int count) {
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = first; i < first + count; i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", "n" + i);
+                    props.put("apt", i);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test28.numberOfDocuments"));
+    }
+
+    private int getChunkSize() {
+        return Integer.parseInt(System.getProperty("test28.chunkSize"));
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * View queries with an explicit list of keys, from a handful up to tens of thousands,
+ * as issued when reconciling a local database with a remote list of IDs. setKeys() is
+ * a single SQL IN list today, and SQLite's default limit is 999 bound variables, so the
+ * keys are sent in batches of at most MAX_KEYS_PER_QUERY, as a caller has to do.
+ */
+public class Test29_KeysQuery extends PerformanceTestCase {
+    public static final String TAG = "KeysQueryPerformance";
+
+    // Under SQLITE_MAX_VARIABLE_NUMBER (999), leaving room for the query's other arguments:
+    private static final int MAX_KEYS_PER_QUERY = 900;
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byRef");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    emitter.emit(document.get("ref"), null);
+                }
+            },
+            "1.0.0"
+        );
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("ref", ref(i));
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        view.updateIndex();
+    }
+
+    public void testKeysQueryPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("byRef");
+        for (String value : System.getProperty("test29.numbersOfKeys").split(",")) {
+            int numberOfKeys = Integer.parseInt(value.trim());
+            if (numberOfKeys > getNumberOfDocuments()) {
+                Log.w(TAG, "Skipping " + numberOfKeys + " keys, there are only " +
+                        getNumberOfDocuments() + " documents");
+                continue;
+            }
+
+            // Existing keys in random order, so the result order can be checked:
+            List<Object> keys = new ArrayList<Object>(numberOfKeys);
+            for (int i = 0; i < numberOfKeys; i++)
+                keys.add(ref(i * (getNumberOfDocuments() / numberOfKeys)));
+            Collections.shuffle(keys, new Random(42));
+
+            List<Object> rowKeys = new ArrayList<Object>(numberOfKeys);
+            int batches = 0;
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < numberOfKeys; i += MAX_KEYS_PER_QUERY) {
+                Query query = view.createQuery();
+                query.setKeys(keys.subList(i, Math.min(i + MAX_KEYS_PER_QUERY, numberOfKeys)));
+                QueryEnumerator rowEnum = query.run();
+                for (QueryRow row : rowEnum)
+                    rowKeys.add(row.getKey());
+                batches++;
+            }
+            long end = System.currentTimeMillis();
+
+            assertEquals(keys, rowKeys);
+            logPerformanceStats((end - start), getNumberOfDocuments() + ", " + numberOfKeys +
+                    " keys, " + batches + " queries");
+        }
+    }
+
+    private static String ref(int i) {
+        return String.format(Locale.ENGLISH, "ref-%08d", i);
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test29.numberOfDocuments"));
+    }
+}
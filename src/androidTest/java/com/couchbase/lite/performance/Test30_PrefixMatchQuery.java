@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Prefix-match queries (QueryOptions.prefixMatchLevel) with short prefixes over string
+ * keys and over [string, number] array keys.
+ */
+public class Test30_PrefixMatchQuery extends PerformanceTestCase {
+    public static final String TAG = "PrefixMatchQueryPerformance";
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    private List<String> names;
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        database.getView("names").setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    emitter.emit(document.get("name"), null);
+                }
+            },
+            "1.0.0"
+        );
+
+        database.getView("namesAndAges").setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    emitter.emit(Arrays.asList(document.get("name"), document.get("age")), null);
+                }
+            },
+            "1.0.0"
+        );
+
+        Random random = new Random(42);
+        names = new ArrayList<String>();
+        for (int i = 0; i < getNumberOfDocuments(); i++) {
+            StringBuilder name = new StringBuilder();
+            for (int c = 0; c < 8; c++)
+                name.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            names.add(name.toString());
+        }
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", names.get(i));
+                    props.put("age", i % 100);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        database.getView("names").updateIndex();
+        database.getView("namesAndAges").updateIndex();
+    }
+
+    public void testStringPrefixMatchPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        for (String prefix : Arrays.asList("m", "mo", "mou")) {
+            long start = System.currentTimeMillis();
+            Query query = database.getView("names").createQuery();
+            query.setPrefixMatchLevel(1);
+            query.setStartKey(prefix);
+            query.setEndKey(prefix);
+            QueryEnumerator rowEnum = query.run();
+            for (QueryRow row : rowEnum)
+                assertTrue(((String) row.getKey()).startsWith(prefix));
+            long end = System.currentTimeMillis();
+            assertEquals(countNamesWithPrefix(prefix), rowEnum.getCount());
+            logPerformanceStats((end - start), getNumberOfDocuments() + ", prefix '" + prefix +
+                    "', " + rowEnum.getCount() + " rows");
+        }
+    }
+
+    public void testArrayPrefixMatchPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        for (String prefix : Arrays.asList("m", "mo", "mou")) {
+            long start = System.currentTimeMillis();
+            Query query = database.getView("namesAndAges").createQuery();
+            query.setPrefixMatchLevel(2);
+            query.setStartKey(Arrays.asList(prefix));
+            query.setEndKey(Arrays.asList(prefix));
+            QueryEnumerator rowEnum = query.run();
+            for (QueryRow row : rowEnum)
+                assertTrue(((String) ((List) row.getKey()).get(0)).startsWith(prefix));
+            long end = System.currentTimeMillis();
+            assertEquals(countNamesWithPrefix(prefix), rowEnum.getCount());
+            logPerformanceStats((end - start), getNumberOfDocuments() + ", prefix ['" + prefix +
+                    "'], " + rowEnum.getCount() + " rows");
+        }
+    }
+
+    private int countNamesWithPrefix(String prefix) {
+        int count = 0;
+        for (String name : names) {
+            if (name.startsWith(prefix))
+                count++;
+        }
+        return count;
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test30.numberOfDocuments"));
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.util.Log;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Queries that load documents for their rows: the emitting documents themselves
+ * (include_docs) and documents linked by an emitted {"_id": ...} value, where many rows
+ * link to the same few documents.
+ */
+public class Test31_LinkedDocsQuery extends PerformanceTestCase {
+    public static final String TAG = "LinkedDocsQueryPerformance";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        database.getView("items").setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    if ("item".equals(document.get("type")))
+                        emitter.emit(document.get("name"), null);
+                }
+            },
+            "1.0.0"
+        );
+
+        database.getView("itemCategories").setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    if ("item".equals(document.get("type"))) {
+                        Map<String, Object> value = new HashMap<String, Object>();
+                        value.put("_id", document.get("category"));
+                        emitter.emit(document.get("name"), value);
+                    }
+                }
+            },
+            "1.0.0"
+        );
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                try {
+                    for (int i = 0; i < getNumberOfCategories(); i++) {
+                        Map<String, Object> props = new HashMap<String, Object>();
+                        props.put("type", "category");
+                        props.put("title", "Category " + i);
+                        database.getDocument(categoryID(i)).putProperties(props);
+                    }
+                    for (int i = 0; i < getNumberOfDocuments(); i++) {
+                        Map<String, Object> props = new HashMap<String, Object>();
+                        props.put("type", "item");
+                        props.put("name", "n" + i);
+                        props.put("category", categoryID(i % getNumberOfCategories()));
+                        Document doc = database.createDocument();
+                        doc.putProperties(props);
+                    }
+                } catch (CouchbaseLiteException e) {
+                    Log.e(TAG, "!!! Failed to create docs", e);
+                    return false;
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        database.getView("items").updateIndex();
+        database.getView("itemCategories").updateIndex();
+    }
+
+    public void testIncludeDocsQueryPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        Query query = database.getView("items").createQuery();
+        query.setPrefetch(true);
+        QueryEnumerator rowEnum = query.run();
+        for (QueryRow row : rowEnum)
+            assertEquals("item", row.getDocumentProperties().get("type"));
+        long end = System.currentTimeMillis();
+        assertEquals(getNumberOfDocuments(), rowEnum.getCount());
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", include_docs");
+    }
+
+    public void testLinkedDocsQueryPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        Query query = database.getView("itemCategories").createQuery();
+        query.setPrefetch(true);
+        QueryEnumerator rowEnum = query.run();
+        for (QueryRow row : rowEnum)
+            assertEquals("category", row.getDocumentProperties().get("type"));
+        long end = System.currentTimeMillis();
+        assertEquals(getNumberOfDocuments(), rowEnum.getCount());
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", linked to " +
+                getNumberOfCategories() + " documents");
+    }
+
+    private static String categoryID(int i) {
+        return String.format(Locale.ENGLISH, "category-%04d", i);
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test31.numberOfDocuments"));
+    }
+
+    private int getNumberOfCategories() {
+        return Integer.parseInt(System.getProperty("test31.numberOfCategories"));
+    }
+}
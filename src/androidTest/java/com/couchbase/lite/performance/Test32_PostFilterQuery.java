@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.Predicate;
+import com.couchbase.lite.Query;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Selective post-filters combined with a small limit, on a view's emitted values and on
+ * the documents of an all-docs query. Only a few percent of the rows match, so filling
+ * one page means loading and decoding most of the index.
+ */
+public class Test32_PostFilterQuery extends PerformanceTestCase {
+    public static final String TAG = "PostFilterQueryPerformance";
+
+    private static final String[] STATUSES = {"open", "in-progress", "blocked", "review", "done"};
+
+    // Matches 1 in 25 documents:
+    private static final String STATUS = "done";
+    private static final int MIN_PRIORITY = 4;
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("tasks");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    Map<String, Object> value = new HashMap<String, Object>();
+                    value.put("status", document.get("status"));
+                    value.put("priority", document.get("priority"));
+                    emitter.emit(document.get("name"), value);
+                }
+            },
+            "1.0.0"
+        );
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", "n" + i);
+                    props.put("status", STATUSES[i % STATUSES.length]);
+                    props.put("priority", (i / STATUSES.length) % 10);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        view.updateIndex();
+    }
+
+    public void testViewPostFilterPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        Query query = database.getView("tasks").createQuery();
+        query.setLimit(getLimit());
+        query.setPostFilter(new Predicate<QueryRow>() {
+            public boolean apply(QueryRow row) {
+                return matches((Map<String, Object>) row.getValue());
+            }
+        });
+        runQuery(query, "view value filter");
+    }
+
+    public void testAllDocsPostFilterPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        Query query = database.createAllDocumentsQuery();
+        query.setPrefetch(true);
+        query.setLimit(getLimit());
+        query.setPostFilter(new Predicate<QueryRow>() {
+            public boolean apply(QueryRow row) {
+                return matches(row.getDocumentProperties());
+            }
+        });
+        runQuery(query, "all-docs document filter");
+    }
+
+    private void runQuery(Query query, String comment) throws CouchbaseLiteException {
+        long start = System.currentTimeMillis();
+        QueryEnumerator rowEnum = query.run();
+        int count = 0;
+        for (QueryRow row : rowEnum) {
+            assertNotNull(row.getDocumentId());
+            count++;
+        }
+        long end = System.currentTimeMillis();
+        assertEquals(Math.min(getLimit(), countMatchingDocuments()), count);
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + comment + ", " +
+                count + " rows");
+    }
+
+    private int countMatchingDocuments() {
+        int count = 0;
+        for (int i = 0; i < getNumberOfDocuments(); i++) {
+            Map<String, Object> props = new HashMap<String, Object>();
+            props.put("status", STATUSES[i % STATUSES.length]);
+            props.put("priority", (i / STATUSES.length) % 10);
+            if (matches(props))
+                count++;
+        }
+        return count;
+    }
+
+    private static boolean matches(Map<String, Object> properties) {
+        return STATUS.equals(properties.get("status")) &&
+                ((Number) properties.get("priority")).intValue() >= MIN_PRIORITY &&
+                ((Number) properties.get("priority")).intValue() < MIN_PRIORITY + 2;
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test32.numberOfDocuments"));
+    }
+
+    private int getLimit() {
+        return Integer.parseInt(System.getProperty("test32.limit"));
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Database;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.QueryEnumerator;
+import com.couchbase.lite.QueryRow;
+import com.couchbase.lite.ReplicationFilter;
+import com.couchbase.lite.SavedRevision;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.javascript.JavaScriptReplicationFilterCompiler;
+import com.couchbase.lite.javascript.JavaScriptViewCompiler;
+import com.couchbase.lite.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JavaScript map and filter functions compiled by couchbase-lite-java-javascript,
+ * compared with equivalent Java Mappers: compile cost, indexing and filter evaluation.
+ */
+public class Test33_JavaScriptView extends PerformanceTestCase {
+    public static final String TAG = "JavaScriptViewPerformance";
+
+    private static final String MAP_FUNCTION =
+            "function(doc) { if (doc.type == 'person') { emit(doc.name, doc.age); } }";
+    private static final String FILTER_FUNCTION =
+            "function(doc, req) { return doc.type == 'person' && doc.age >= 18; }";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View.setCompiler(new JavaScriptViewCompiler());
+        Database.setFilterCompiler(new JavaScriptReplicationFilterCompiler());
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("type", i % 4 == 0 ? "pet" : "person");
+                    props.put("name", "n" + i);
+                    props.put("age", i % 80);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        View.setCompiler(null);
+        Database.setFilterCompiler(null);
+        super.tearDown();
+    }
+
+    public void testCompileMapFunctionPerformance() {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < getNumberOfCompilations(); i++)
+            assertNotNull(View.getCompiler().compileMap(MAP_FUNCTION, "javascript"));
+        long end = System.currentTimeMillis();
+        logPerformanceStats((end - start), getNumberOfCompilations() + " compilations");
+    }
+
+    public void testJavaScriptMapIndexPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        Mapper mapper = View.getCompiler().compileMap(MAP_FUNCTION, "javascript");
+        assertNotNull(mapper);
+        runIndex(mapper, "javascript");
+    }
+
+    public void testJavaMapIndexPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        runIndex(new Mapper() {
+            public void map(Map<String, Object> document, Emitter emitter) {
+                if ("person".equals(document.get("type")))
+                    emitter.emit(document.get("name"), document.get("age"));
+            }
+        }, "java");
+    }
+
+    public void testJavaScriptFilterPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        ReplicationFilter filter = Database.getFilterCompiler()
+                .compileFilterFunction(FILTER_FUNCTION, "javascript");
+        assertNotNull(filter);
+        runFilter(filter, "javascript");
+    }
+
+    public void testJavaFilterPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        runFilter(new ReplicationFilter() {
+            @Override
+            public boolean filter(SavedRevision revision, Map<String, Object> params) {
+                Object age = revision.getProperty("age");
+                return "person".equals(revision.getProperty("type")) &&
+                        age instanceof Number && ((Number) age).intValue() >= 18;
+            }
+        }, "java");
+    }
+
+    private void runIndex(Mapper mapper, String language) throws CouchbaseLiteException {
+        View view = database.getView("people_" + language);
+        view.setMap(mapper, "1.0.0");
+        long start = System.currentTimeMillis();
+        view.updateIndex();
+        long end = System.currentTimeMillis();
+        assertEquals(getNumberOfDocuments() - (getNumberOfDocuments() + 3) / 4, view.getTotalRows());
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + language);
+    }
+
+    private void runFilter(ReplicationFilter filter, String language)
+            throws CouchbaseLiteException {
+        // Load the revisions first, so only the filter calls are timed:
+        List<SavedRevision> revisions = new ArrayList<SavedRevision>(getNumberOfDocuments());
+        QueryEnumerator rowEnum = database.createAllDocumentsQuery().run();
+        for (QueryRow row : rowEnum)
+            revisions.add(row.getDocument().getCurrentRevision());
+
+        long start = System.currentTimeMillis();
+        int accepted = 0;
+        for (SavedRevision revision : revisions) {
+            if (filter.filter(revision, null))
+                accepted++;
+        }
+        long end = System.currentTimeMillis();
+
+        int expected = 0;
+        for (int i = 0; i < getNumberOfDocuments(); i++) {
+            if (i % 4 != 0 && i % 80 >= 18)
+                expected++;
+        }
+        assertEquals(expected, accepted);
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + language + ", " +
+                accepted + " accepted");
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test33.numberOfDocuments"));
+    }
+
+    private int getNumberOfCompilations() {
+        return Integer.parseInt(System.getProperty("test33.numberOfCompilations"));
+    }
+}
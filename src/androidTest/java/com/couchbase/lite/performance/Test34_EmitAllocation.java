@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import android.os.Debug;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.Emitter;
+import com.couchbase.lite.Mapper;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.View;
+import com.couchbase.lite.util.Log;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bytes allocated per emitted row while indexing a view that emits several rows per
+ * document. Uses the VM allocation counters from android.os.Debug, which are only
+ * maintained by some runtimes; when they report nothing only the time is logged.
+ */
+public class Test34_EmitAllocation extends PerformanceTestCase {
+    public static final String TAG = "EmitAllocationPerformance";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("multiEmit");
+        view.setMap(
+            new Mapper() {
+                public void map(Map<String, Object> document, Emitter emitter) {
+                    String name = (String) document.get("name");
+                    for (int i = 0; i < getNumberOfRowsPerDocument(); i++)
+                        emitter.emit(Arrays.asList(name, i), i);
+                }
+            },
+            "1.0.0"
+        );
+
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("name", "n" + i);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    @SuppressWarnings("deprecation")
+    public void testEmitAllocationPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        View view = database.getView("multiEmit");
+        Debug.resetAllCounts();
+        Debug.startAllocCounting();
+        long start = System.currentTimeMillis();
+        try {
+            view.updateIndex();
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        long end = System.currentTimeMillis();
+        long bytes = Debug.getGlobalAllocSize();
+        long objects = Debug.getGlobalAllocCount();
+
+        long rows = (long) getNumberOfDocuments() * getNumberOfRowsPerDocument();
+        assertEquals(rows, view.getTotalRows());
+        String comment = rows + " rows";
+        if (bytes > 0)
+            comment += ", " + (bytes / rows) + " bytes/row, " + (objects / rows) + " objects/row";
+        logPerformanceStats((end - start), comment);
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test34.numberOfDocuments"));
+    }
+
+    private int getNumberOfRowsPerDocument() {
+        return Integer.parseInt(System.getProperty("test34.numberOfRowsPerDocument"));
+    }
+}
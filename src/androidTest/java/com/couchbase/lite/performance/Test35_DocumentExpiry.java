@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Database;
+import com.couchbase.lite.Document;
+import com.couchbase.lite.DocumentChange;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.util.Log;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Automatic purging of expired documents (Document.setExpirationDate). A fraction of
+ * the documents expire at the same deadline while the rest expire much later; measures
+ * how long it takes after the deadline until every expired document has been purged.
+ */
+public class Test35_DocumentExpiry extends PerformanceTestCase {
+    public static final String TAG = "DocumentExpiryPerformance";
+
+    private static final long EXPIRY_DELAY = 2000;      // 2 sec
+    private static final long FAR_EXPIRY_DELAY = 3600000; // 1 hour
+
+    private List<String> docIDs;
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void setUp() throws Exception {
+        super.setUp();
+
+        if (!performanceTestsEnabled())
+            return;
+
+        docIDs = new ArrayList<String>();
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("cached", i);
+                    Document doc = database.createDocument();
+                    try {
+                        doc.putProperties(props);
+                        docIDs.add(doc.getId());
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    public void testDocumentExpiryPerformance() throws Exception {
+        if (!performanceTestsEnabled())
+            return;
+
+        final int numberOfExpiring = getNumberOfDocuments() * getPercentExpiring() / 100;
+        final CountDownLatch latch = new CountDownLatch(numberOfExpiring);
+        final AtomicLong lastPurge = new AtomicLong();
+        database.addChangeListener(new Database.ChangeListener() {
+            @Override
+            public void changed(Database.ChangeEvent event) {
+                for (DocumentChange change : event.getChanges()) {
+                    if (change.getRevisionId() == null) {
+                        lastPurge.set(System.currentTimeMillis());
+                        latch.countDown();
+                    }
+                }
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        final Date deadline = new Date(start + EXPIRY_DELAY);
+        final Date farDeadline = new Date(start + FAR_EXPIRY_DELAY);
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < docIDs.size(); i++) {
+                    Document doc = database.getDocument(docIDs.get(i));
+                    doc.setExpirationDate(i < numberOfExpiring ? deadline : farDeadline);
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+        long marked = System.currentTimeMillis();
+
+        assertTrue(latch.await(EXPIRY_DELAY + 60000, TimeUnit.MILLISECONDS));
+        assertEquals(getNumberOfDocuments() - numberOfExpiring, database.getDocumentCount());
+
+        logPerformanceStats((marked - start), getNumberOfDocuments() + ", set expiration");
+        logPerformanceStats((lastPurge.get() - deadline.getTime()), getNumberOfDocuments() + ", " +
+                numberOfExpiring + " purged, deadline to last purge");
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test35.numberOfDocuments"));
+    }
+
+    private int getPercentExpiring() {
+        return Integer.parseInt(System.getProperty("test35.percentExpiring"));
+    }
+}
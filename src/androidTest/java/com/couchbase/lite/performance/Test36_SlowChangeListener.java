@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Database;
+import com.couchbase.lite.DocumentChange;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writer throughput with and without a slow Database.ChangeListener, and the lag between
+ * a document being saved and the listener being told about it.
+ */
+public class Test36_SlowChangeListener extends PerformanceTestCase {
+    public static final String TAG = "SlowChangeListenerPerformance";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void testWriteWithoutListenerPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        writeDocuments();
+        long end = System.currentTimeMillis();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", no listener");
+    }
+
+    public void testWriteWithSlowListenerPerformance() throws Exception {
+        if (!performanceTestsEnabled())
+            return;
+
+        final CountDownLatch notified = new CountDownLatch(getNumberOfDocuments());
+        final AtomicLong totalLag = new AtomicLong();
+        final AtomicLong maxLag = new AtomicLong();
+        database.addChangeListener(new Database.ChangeListener() {
+            @Override
+            public void changed(Database.ChangeEvent event) {
+                long now = System.currentTimeMillis();
+                for (DocumentChange change : event.getChanges()) {
+                    Map<String, Object> props =
+                            database.getDocument(change.getDocumentId()).getProperties();
+                    long lag = now - ((Number) props.get("saved")).longValue();
+                    totalLag.addAndGet(lag);
+                    if (lag > maxLag.get())
+                        maxLag.set(lag);
+                    notified.countDown();
+                }
+                try {
+                    Thread.sleep(getListenerDelay());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        long start = System.currentTimeMillis();
+        writeDocuments();
+        long end = System.currentTimeMillis();
+        assertTrue(notified.await(60, TimeUnit.SECONDS));
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", listener delay " +
+                getListenerDelay() + " msec");
+        logPerformanceStats(totalLag.get() / getNumberOfDocuments(), "average listener lag");
+        logPerformanceStats(maxLag.get(), "maximum listener lag");
+    }
+
+    private void writeDocuments() throws CouchbaseLiteException {
+        // One transaction per document, so each save produces its own notification:
+        for (int i = 0; i < getNumberOfDocuments(); i++) {
+            Map<String, Object> props = new HashMap<String, Object>();
+            props.put("name", "n" + i);
+            props.put("saved", System.currentTimeMillis());
+            database.createDocument().putProperties(props);
+        }
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test36.numberOfDocuments"));
+    }
+
+    private int getListenerDelay() {
+        return Integer.parseInt(System.getProperty("test36.listenerDelay"));
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2016 Couchbase, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package com.couchbase.lite.performance;
+
+import com.couchbase.lite.CouchbaseLiteException;
+import com.couchbase.lite.Database;
+import com.couchbase.lite.DocumentChange;
+import com.couchbase.lite.TransactionalTask;
+import com.couchbase.lite.util.Log;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Many Database.ChangeListeners that are each interested in a small slice of the
+ * documents, and so have to filter every change they receive in Java. A third of them
+ * select by docID prefix, a third by the "type" property and a third by a set of docIDs.
+ */
+public class Test37_FilteredChangeListeners extends PerformanceTestCase {
+    public static final String TAG = "FilteredChangeListenersPerformance";
+
+    @Override
+    protected String getTestTag() {
+        return TAG;
+    }
+
+    public void testWriteWithoutListenersPerformance() throws CouchbaseLiteException {
+        if (!performanceTestsEnabled())
+            return;
+
+        long start = System.currentTimeMillis();
+        writeDocuments();
+        long end = System.currentTimeMillis();
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", no listeners");
+    }
+
+    public void testWriteWithFilteringListenersPerformance() throws Exception {
+        if (!performanceTestsEnabled())
+            return;
+
+        final CountDownLatch notified =
+                new CountDownLatch(getNumberOfDocuments() * getNumberOfListeners());
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong matched = new AtomicLong();
+        for (int i = 0; i < getNumberOfListeners(); i++) {
+            final String slice = slice(i);
+            final int filter = i % 3;
+            final Set<String> docIDs = new HashSet<String>();
+            if (filter == 2) {
+                for (int j = i; j < getNumberOfDocuments(); j += getNumberOfListeners())
+                    docIDs.add(docID(j));
+            }
+            database.addChangeListener(new Database.ChangeListener() {
+                @Override
+                public void changed(Database.ChangeEvent event) {
+                    for (DocumentChange change : event.getChanges()) {
+                        delivered.incrementAndGet();
+                        boolean match;
+                        if (filter == 0) {
+                            match = change.getDocumentId().startsWith(slice + ":");
+                        } else if (filter == 1) {
+                            Object type = database.getDocument(change.getDocumentId())
+                                    .getProperty("type");
+                            match = slice.equals(type);
+                        } else {
+                            match = docIDs.contains(change.getDocumentId());
+                        }
+                        if (match)
+                            matched.incrementAndGet();
+                        notified.countDown();
+                    }
+                }
+            });
+        }
+
+        long start = System.currentTimeMillis();
+        writeDocuments();
+        long end = System.currentTimeMillis();
+        assertTrue(notified.await(60, TimeUnit.SECONDS));
+        // Every listener sees every change, and every document matches exactly one listener:
+        assertEquals((long) getNumberOfDocuments() * getNumberOfListeners(), delivered.get());
+        assertEquals(getNumberOfDocuments(), matched.get());
+        logPerformanceStats((end - start), getNumberOfDocuments() + ", " + getNumberOfListeners() +
+                " listeners, " + delivered.get() + " changes delivered, " + matched.get() +
+                " matched");
+    }
+
+    private void writeDocuments() {
+        boolean success = database.runInTransaction(new TransactionalTask() {
+            public boolean run() {
+                for (int i = 0; i < getNumberOfDocuments(); i++) {
+                    // Every document belongs to one slice, whichever way a listener filters:
+                    String slice = slice(i % getNumberOfListeners());
+                    Map<String, Object> props = new HashMap<String, Object>();
+                    props.put("type", slice);
+                    props.put("name", "n" + i);
+                    try {
+                        database.getDocument(docID(i)).putProperties(props);
+                    } catch (CouchbaseLiteException e) {
+                        Log.e(TAG, "!!! Failed to create doc " + props, e);
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+        assertTrue(success);
+    }
+
+    private static String slice(int i) {
+        return "slice" + i;
+    }
+
+    private String docID(int i) {
+        return String.format(Locale.ENGLISH, "%s:%08d", slice(i % getNumberOfListeners()), i);
+    }
+
+    private int getNumberOfDocuments() {
+        return Integer.parseInt(System.getProperty("test37.numberOfDocuments"));
+    }
+
+    private int getNumberOfListeners() {
+        return Integer.parseInt(System.getProperty("test37.numberOfListeners"));
+    }
+}